@@ -0,0 +1,97 @@
+package com.sysmetrics.bench;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Lock-free latency histogram: every power of two is split into 16 linear sub-buckets,
+ * which keeps percentiles within ~6% of the true value at a fixed memory cost.
+ */
+public class LatencyRecorder {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+    private LongAdder count = new LongAdder();
+    private LongAdder errors = new LongAdder();
+    private LongAdder totalNanos = new LongAdder();
+    private volatile long maxNanos = 0;
+
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    public void record(long nanos) {
+        buckets.incrementAndGet(bucketOf(Math.max(nanos, 0)));
+        count.increment();
+        totalNanos.add(nanos);
+        if (nanos > maxNanos) {
+            synchronized (this) {
+                maxNanos = Math.max(maxNanos, nanos);
+            }
+        }
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long percentileNanos(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    // Summary in the same nested-map form the console log uses for YAML output
+    public Map<String, Object> summary(double elapsedSeconds) {
+        var latency = new LinkedHashMap<String, Object>();
+        long total = count.sum();
+        latency.put("mean", (total == 0 ? 0.0 : totalNanos.sum() / (double) total / 1e6));
+        latency.put("p50", percentileNanos(50) / 1e6);
+        latency.put("p90", percentileNanos(90) / 1e6);
+        latency.put("p99", percentileNanos(99) / 1e6);
+        latency.put("p99_9", percentileNanos(99.9) / 1e6);
+        latency.put("max", maxNanos / 1e6);
+
+        var summary = new LinkedHashMap<String, Object>();
+        summary.put("count", total);
+        summary.put("errors", errors.sum());
+        summary.put("throughput_per_sec", total / elapsedSeconds);
+        summary.put("latency_ms", latency);
+        return summary;
+    }
+}
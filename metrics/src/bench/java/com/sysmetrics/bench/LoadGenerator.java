@@ -0,0 +1,339 @@
+package com.sysmetrics.bench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.JsonGenerator.Feature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.sysmetrics.main.SysInfoCQL;
+import com.sysmetrics.main.SysInfoDB;
+import com.sysmetrics.main.SysInfoMemory;
+
+import org.tomlj.Toml;
+import org.tomlj.TomlParseResult;
+
+/*
+ * Simulates N agents x M groups x K metrics inserting at a fixed cadence
+ * while a mix of time range queries runs concurrently, then prints
+ * throughput and latency percentiles as YAML.
+ * Every (agent, group) pair gets its own table, since rows carry no host column.
+ */
+public class LoadGenerator {
+    private SysInfoDB db;
+    private boolean destroyOnClose;
+    private int agents;
+    private int groups;
+    private int metrics;
+    private long insertIntervalMs;
+    private int insertThreads;
+    private long durationSeconds;
+    private int queryConcurrency;
+    private boolean queryAsync;
+    private long[] queryRangesMinutes;
+    private long queryThinkTimeMs;
+
+    private List<List<String>> agentTables = new ArrayList<List<String>>();
+    private List<String> metricNames = new ArrayList<String>();
+    private LatencyRecorder inserts = new LatencyRecorder();
+    private LatencyRecorder queries = new LatencyRecorder();
+    private LongAdder rowsReturned = new LongAdder();
+    private LongAdder ticksRun = new LongAdder();
+    private LongAdder ticksLate = new LongAdder();
+
+    // Tracks when each tick of one agent was due, so time spent queued behind slow inserts is measured too
+    private class AgentTicker
+            implements Runnable {
+        private List<String> tables;
+        private long firstDueNanos;
+        private long ticks = 0;
+
+        private AgentTicker(List<String> tables) {
+            this.tables = tables;
+        }
+
+        // The executor's own clock starts just after firstDueNanos, so latency is never underestimated
+        private void schedule(ScheduledExecutorService executor, long initialDelay) {
+            firstDueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(initialDelay);
+            executor.scheduleAtFixedRate(this, initialDelay, insertIntervalMs, TimeUnit.MILLISECONDS);
+        }
+
+        // Fixed-rate runs never overlap and are never skipped, so the k-th run serves the k-th due time
+        @Override
+        public void run() {
+            long intervalNanos = TimeUnit.MILLISECONDS.toNanos(insertIntervalMs);
+            long dueNanos = firstDueNanos + ticks * intervalNanos;
+            ticks++;
+            ticksRun.increment();
+            if (System.nanoTime() - dueNanos > intervalNanos) {
+                ticksLate.increment();
+            }
+            insertTick(tables, dueNanos);
+        }
+
+        private long ticksDue(long stopNanos) {
+            if (stopNanos < firstDueNanos) {
+                return 0;
+            }
+            return (stopNanos - firstDueNanos) / TimeUnit.MILLISECONDS.toNanos(insertIntervalMs) + 1;
+        }
+    }
+
+    private static SysInfoDB initDBWithTOML(TomlParseResult result) {
+        if (result.getString("load.backend", () -> "memory").equals("cql")) {
+            return new SysInfoCQL(result.getString("cql.contact_point", () -> "127.0.0.1"),
+                    result.getString("cql.namespace", () -> "SysBench"),
+                    result.getString("cql.username", () -> ""),
+                    result.getString("cql.password", () -> ""),
+                    (int) result.getLong("cql.ttl_days", () -> 0L),
+                    result.getString("cql.archive_path", () -> ""));
+        }
+        return new SysInfoMemory();
+    }
+
+    public static LoadGenerator initWithTOML(Path pathToProperties)
+            throws IOException {
+        TomlParseResult result = Toml.parse(pathToProperties);
+        var generator = new LoadGenerator();
+
+        generator.db = initDBWithTOML(result);
+        generator.destroyOnClose = result.getBoolean("cql.destroy", () -> true);
+        generator.agents = (int) result.getLong("load.agents", () -> 10L);
+        generator.groups = (int) result.getLong("load.groups", () -> 4L);
+        generator.metrics = (int) result.getLong("load.metrics", () -> 8L);
+        generator.insertIntervalMs = result.getLong("load.insert_interval_ms", () -> 3000L);
+        generator.insertThreads = (int) result.getLong("load.insert_threads", () -> 4L);
+        generator.durationSeconds = result.getLong("load.duration_seconds", () -> 60L);
+        generator.queryConcurrency = (int) result.getLong("queries.concurrency", () -> 8L);
+        generator.queryAsync = result.getBoolean("queries.async", () -> true);
+        generator.queryThinkTimeMs = result.getLong("queries.think_time_ms", () -> 0L);
+        var ranges = result.getArray("queries.ranges_minutes");
+        generator.queryRangesMinutes = (ranges == null
+                ? new long[] { 5, 60, 1440 }
+                : ranges.toList().stream().mapToLong((range) -> (Long) range).toArray());
+
+        return generator;
+    }
+
+    private void initTables() {
+        for (int m = 0; m < metrics; m++) {
+            metricNames.add("metric" + Integer.toString(m + 1));
+        }
+        for (int a = 0; a < agents; a++) {
+            var tables = new ArrayList<String>();
+            for (int g = 0; g < groups; g++) {
+                var table = "agent" + Integer.toString(a + 1) + "_group" + Integer.toString(g + 1);
+                db.initTable(table, metricNames);
+                tables.add(table);
+            }
+            agentTables.add(tables);
+        }
+    }
+
+    // One tick of a simulated SysInfoGatherer.updateMetrics: every group of the agent is written.
+    // Latency counts from when the tick was due, not from when a pool thread got to it.
+    private void insertTick(List<String> tables, long dueNanos) {
+        var random = ThreadLocalRandom.current();
+        for (var table : tables) {
+            var values = new HashMap<String, Double>();
+            for (var metric : metricNames) {
+                values.put(metric, random.nextDouble());
+            }
+            try {
+                db.insertChecked(table, values);
+                inserts.record(System.nanoTime() - dueNanos);
+            } catch (Exception e) {
+                inserts.recordError();
+            }
+        }
+    }
+
+    private List<String> randomQuery(LocalDateTime[] range) {
+        var random = ThreadLocalRandom.current();
+        var tables = agentTables.get(random.nextInt(agents));
+        var to = LocalDateTime.now();
+        range[0] = to.minusMinutes(queryRangesMinutes[random.nextInt(queryRangesMinutes.length)]);
+        range[1] = to;
+        return Arrays.asList(tables.get(random.nextInt(groups)));
+    }
+
+    private void countRows(Map<String, Map<String, Map<String, Double>>> result) {
+        for (var group : result.values()) {
+            rowsReturned.add(group.size());
+        }
+    }
+
+    private void syncQueryLoop(long deadline) {
+        var range = new LocalDateTime[2];
+        while (System.nanoTime() < deadline) {
+            var groupsToQuery = randomQuery(range);
+            long start = System.nanoTime();
+            try {
+                countRows(db.selectTimeRange(range[0], range[1], groupsToQuery));
+                queries.record(System.nanoTime() - start);
+            } catch (Exception e) {
+                queries.recordError();
+            }
+            sleepQuietly(queryThinkTimeMs);
+        }
+    }
+
+    // A single thread keeps queryConcurrency requests in flight
+    private void asyncQueryLoop(long deadline)
+            throws InterruptedException {
+        var inFlight = new Semaphore(queryConcurrency);
+        var range = new LocalDateTime[2];
+        while (System.nanoTime() < deadline) {
+            if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            var groupsToQuery = randomQuery(range);
+            long start = System.nanoTime();
+            try {
+                db.selectTimeRangeAsync(range[0], range[1], groupsToQuery).whenComplete((result, e) -> {
+                    if (e != null) {
+                        queries.recordError();
+                    } else {
+                        queries.record(System.nanoTime() - start);
+                        countRows(result);
+                    }
+                    inFlight.release();
+                });
+            } catch (Exception e) {
+                queries.recordError();
+                inFlight.release();
+            }
+            sleepQuietly(queryThinkTimeMs);
+        }
+        inFlight.acquire(queryConcurrency);
+    }
+
+    private static void sleepQuietly(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Map<String, Object> run()
+            throws InterruptedException {
+        initTables();
+
+        ScheduledExecutorService insertExecutor = Executors.newScheduledThreadPool(insertThreads);
+        var tickers = new ArrayList<AgentTicker>();
+        for (var tables : agentTables) {
+            var ticker = new AgentTicker(tables);
+            tickers.add(ticker);
+            // Spread agents over the interval instead of writing in bursts
+            ticker.schedule(insertExecutor, ThreadLocalRandom.current().nextLong(insertIntervalMs));
+        }
+
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService queryExecutor = Executors.newFixedThreadPool(queryAsync ? 1 : queryConcurrency);
+        for (int i = 0; i < (queryAsync ? 1 : queryConcurrency); i++) {
+            queryExecutor.execute(() -> {
+                try {
+                    if (queryAsync) {
+                        asyncQueryLoop(deadline);
+                    } else {
+                        syncQueryLoop(deadline);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        queryExecutor.shutdown();
+        queryExecutor.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+        long insertsStopped = System.nanoTime();
+        // Ticks that are due but still queued are dropped here and reported as missed
+        insertExecutor.shutdown();
+        insertExecutor.awaitTermination(insertIntervalMs + 60000, TimeUnit.MILLISECONDS);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        long ticksDue = 0;
+        for (var ticker : tickers) {
+            ticksDue += ticker.ticksDue(insertsStopped);
+        }
+
+        var config = new LinkedHashMap<String, Object>();
+        config.put("backend", db.getClass().getSimpleName());
+        config.put("agents", agents);
+        config.put("groups", groups);
+        config.put("metrics", metrics);
+        config.put("insert_interval_ms", insertIntervalMs);
+        config.put("query_concurrency", queryConcurrency);
+        config.put("query_async", queryAsync);
+        config.put("query_ranges_minutes", queryRangesMinutes);
+
+        var queriesSummary = queries.summary(elapsedSeconds);
+        queriesSummary.put("rows_returned", rowsReturned.sum());
+
+        var report = new LinkedHashMap<String, Object>();
+        report.put("config", config);
+        report.put("elapsed_seconds", elapsedSeconds);
+        var insertsSummary = inserts.summary(elapsedSeconds);
+        insertsSummary.put("target_inserts_per_sec", agents * groups * 1000.0 / insertIntervalMs);
+        insertsSummary.put("ticks_due", ticksDue);
+        insertsSummary.put("ticks_run", ticksRun.sum());
+        insertsSummary.put("ticks_late", ticksLate.sum());
+        insertsSummary.put("ticks_missed", Math.max(0, ticksDue - ticksRun.sum()));
+        report.put("inserts", insertsSummary);
+        report.put("queries", queriesSummary);
+        report.put("db_exceptions", db.getExceptions().size());
+        return report;
+    }
+
+    public void close() {
+        try {
+            if (destroyOnClose) {
+                db.destroy();
+            }
+        } finally {
+            try {
+                db.close();
+            } catch (Exception e) {
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        var pathToProperties = Paths.get(args.length > 0 ? args[0] : "bench.toml");
+        LoadGenerator generator = null;
+        try {
+            generator = initWithTOML(pathToProperties);
+            var report = generator.run();
+
+            var mapper = new ObjectMapper(new YAMLFactory().disable(Feature.AUTO_CLOSE_TARGET));
+            mapper.writeValue(System.out, report);
+        } catch (Exception e) {
+            System.out.println("An exception occured when running the load test!");
+            e.printStackTrace();
+        } finally {
+            if (generator != null) {
+                generator.close();
+            }
+        }
+    }
+}
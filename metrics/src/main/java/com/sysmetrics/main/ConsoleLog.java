@@ -43,7 +43,9 @@ public class ConsoleLog {
             sysInfoBuilder.initLogCQL(result.getString("cql_logging.contact_point"),
                     result.getString("cql_logging.namespace", () -> "SysInfoDefault"),
                     result.getString("cql_logging.username", () -> ""),
-                    result.getString("cql_logging.password", () -> ""));
+                    result.getString("cql_logging.password", () -> ""),
+                    (int) result.getLong("cql_logging.ttl_days", () -> 0L),
+                    result.getString("cql_logging.archive_path", () -> ""));
         }
 
         return sysInfoBuilder.build();
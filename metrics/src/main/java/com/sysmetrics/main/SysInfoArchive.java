@@ -0,0 +1,133 @@
+package com.sysmetrics.main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Cold tier storage: one gzip-compressed columnar file per (group, day) partition,
+ * laid out as <root>/<namespace>/<group>/<yyyy-MM-dd>.col.gz.
+ * File layout: magic, column count, column names, row count,
+ * then the time column (nanos of day) followed by every metric column.
+ */
+public class SysInfoArchive {
+    private static final int MAGIC = 0x53495341; // "SISA"
+    private static final String EXTENSION = ".col.gz";
+
+    private Path root;
+
+    public SysInfoArchive(String rootPath, String namespace) {
+        this.root = Paths.get(rootPath, namespace.toLowerCase());
+    }
+
+    private Path partitionPath(String group, LocalDate date) {
+        return root.resolve(group.toLowerCase()).resolve(date.toString() + EXTENSION);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public boolean exists() {
+        return Files.isDirectory(root);
+    }
+
+    public boolean contains(String group, LocalDate date) {
+        return Files.exists(partitionPath(group, date));
+    }
+
+    public void write(String group, LocalDate date, List<String> columns,
+            List<Long> times, List<double[]> rows)
+            throws IOException {
+        var target = partitionPath(group, date);
+        Files.createDirectories(target.getParent());
+        var temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(columns.size());
+            for (var column : columns) {
+                out.writeUTF(column);
+            }
+            out.writeInt(times.size());
+            for (var time : times) {
+                out.writeLong(time);
+            }
+            for (int i = 0; i < columns.size(); i++) {
+                for (var row : rows) {
+                    out.writeDouble(row[i]);
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Same shape as the hot tier: Map<Timestamp, Map<Metric, Value>>
+    public Map<String, Map<String, Double>> read(String group, LocalDate date, LocalTime from, LocalTime to)
+            throws IOException {
+        var result = new TreeMap<String, Map<String, Double>>();
+        var path = partitionPath(group, date);
+        if (!Files.exists(path)) {
+            return result;
+        }
+
+        try (var in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a metrics archive: " + path);
+            }
+            var columns = new ArrayList<String>();
+            int columnCount = in.readInt();
+            for (int i = 0; i < columnCount; i++) {
+                columns.add(in.readUTF());
+            }
+            int rowCount = in.readInt();
+            var times = new long[rowCount];
+            for (int r = 0; r < rowCount; r++) {
+                times[r] = in.readLong();
+            }
+            var values = new double[columnCount][rowCount];
+            for (int i = 0; i < columnCount; i++) {
+                for (int r = 0; r < rowCount; r++) {
+                    values[i][r] = in.readDouble();
+                }
+            }
+
+            // Bounds are compared with second precision, just as the CQL query does
+            var fromNanos = (from != null ? from.truncatedTo(ChronoUnit.SECONDS).toNanoOfDay() : Long.MIN_VALUE);
+            var toNanos = (to != null ? to.truncatedTo(ChronoUnit.SECONDS).toNanoOfDay() : Long.MAX_VALUE);
+            var dateString = date.toString();
+            for (int r = 0; r < rowCount; r++) {
+                if (times[r] < fromNanos || times[r] > toNanos) {
+                    continue;
+                }
+                var metaTime = dateString + " "
+                        + LocalTime.ofNanoOfDay(times[r]).format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+                var metrics = new HashMap<String, Double>();
+                for (int i = 0; i < columnCount; i++) {
+                    metrics.put(columns.get(i), values[i][r]);
+                }
+                result.put(metaTime, metrics);
+            }
+        }
+        return result;
+    }
+}
@@ -6,25 +6,69 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.HostDistance;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public class SysInfoCQL
         implements SysInfoDB {
 
+    // Rows outlive the hot tier cutoff by this much, so the archiver has time to export them
+    private static final int TTL_GRACE_DAYS = 1;
+    // Per-request limit of (group, day) queries in flight, so one long range cannot flood the connection pool
+    private static final int MAX_IN_FLIGHT_PER_REQUEST = 8;
+
     private Cluster cluster;
     private Session session;
     private String namespace;
-    private Collection<DBException> exceptions = new ArrayList<DBException>();
+    private int ttlDays;
+    private SysInfoArchive archive;
+    private AtomicBoolean archiveMissingReported = new AtomicBoolean(false);
+    private ScheduledExecutorService archiver;
+    // Decodes rows, merges results and reads the archive, keeping this work off the driver I/O threads
+    private ExecutorService queryExecutor = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+    // Shared by all requests: async queries beyond the connection pool capacity wait here instead of failing
+    private Semaphore queryPermits;
+    private ConcurrentLinkedQueue<Runnable> pendingQueries = new ConcurrentLinkedQueue<Runnable>();
+    private Collection<DBException> exceptions = Collections.synchronizedList(new ArrayList<DBException>());
 
     public SysInfoCQL(String contactPoint, String namespace, String username, String password) {
+        this(contactPoint, namespace, username, password, 0, "");
+    }
+
+    // ttlDays == 0 keeps records forever; an empty archivePath disables the cold tier
+    public SysInfoCQL(String contactPoint, String namespace, String username, String password,
+            int ttlDays, String archivePath) {
         this.namespace = namespace;
+        this.ttlDays = ttlDays;
+        if (!archivePath.isEmpty()) {
+            archive = new SysInfoArchive(archivePath, namespace);
+        }
         var clusterBuilder = Cluster.builder()
                 .withoutJMXReporting()
                 .addContactPoint(contactPoint);
@@ -34,6 +78,10 @@ public class SysInfoCQL
         cluster = clusterBuilder.build();
         session = cluster.connect();
 
+        var poolingOptions = cluster.getConfiguration().getPoolingOptions();
+        queryPermits = new Semaphore(poolingOptions.getMaxRequestsPerConnection(HostDistance.LOCAL)
+                * poolingOptions.getMaxConnectionsPerHost(HostDistance.LOCAL));
+
         session.execute("CREATE KEYSPACE IF NOT EXISTS " + namespace
                 + " WITH replication = {'class': 'SimpleStrategy', 'replication_factor': 2};");
         session.execute("USE " + namespace);
@@ -41,9 +89,95 @@ public class SysInfoCQL
 
     @Override
     public void close() {
+        if (archiver != null) {
+            archiver.shutdownNow();
+        }
+        queryExecutor.shutdownNow();
         cluster.close();
     }
 
+    public void startArchiver(long periodMinutes) {
+        if ((archive == null) || (ttlDays == 0) || (archiver != null)) {
+            return;
+        }
+        archiver = Executors.newSingleThreadScheduledExecutor();
+        archiver.scheduleAtFixedRate(this::archiveClosedDays, 0, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    // Exports every closed day that has not started expiring yet and is not archived.
+    // Without a TTL nothing is ever read from the archive, so nothing is exported either.
+    public void archiveClosedDays() {
+        if (archive == null) {
+            return;
+        }
+        var days = archiveWindow(LocalDate.now(), ttlDays);
+        try {
+            for (var group : getGroups()) {
+                for (var date : days) {
+                    if (!archive.contains(group, date)) {
+                        archiveDay(group, date);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // An escaping exception would cancel the scheduled archiver
+            exceptions.add(new DBException("archive " + namespace, e.getMessage()));
+        }
+    }
+
+    private void archiveDay(String group, LocalDate date) {
+        String selectStatement = "SELECT * FROM " + group + " WHERE infodate = '" + date + "';";
+        try {
+            ResultSet rs = session.execute(selectStatement);
+            var definitions = rs.getColumnDefinitions();
+            var columns = new ArrayList<String>();
+            for (int i = 2; i < definitions.size(); i++) {
+                columns.add(definitions.getName(i));
+            }
+            var times = new ArrayList<Long>();
+            var rows = new ArrayList<double[]>();
+            for (Row row : rs) {
+                var values = new double[columns.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = row.getDouble(i + 2);
+                }
+                times.add(row.getTime("infotime"));
+                rows.add(values);
+            }
+            if (!times.isEmpty()) {
+                archive.write(group, date, columns, times, rows);
+            }
+        } catch (Exception e) {
+            exceptions.add(new DBException(selectStatement, e.getMessage()));
+        }
+    }
+
+    // Seconds a row lives in CQL: the hot tier plus the grace period
+    static int ttlSeconds(int ttlDays) {
+        return (ttlDays + TTL_GRACE_DAYS) * 24 * 60 * 60;
+    }
+
+    // Closed days the archiver exports on `today`: from the oldest day that has not started expiring up to yesterday
+    static List<LocalDate> archiveWindow(LocalDate today, int ttlDays) {
+        var days = new ArrayList<LocalDate>();
+        if (ttlDays == 0) {
+            return days;
+        }
+        for (var date = today.minusDays(ttlDays + TTL_GRACE_DAYS - 1); date.isBefore(today); date = date.plusDays(1)) {
+            days.add(date);
+        }
+        return days;
+    }
+
+    // Days at or before today - ttlDays are served from the archive
+    static boolean isCold(LocalDate date, LocalDate today, int ttlDays) {
+        return (ttlDays > 0) && !date.isAfter(today.minusDays(ttlDays));
+    }
+
+    private boolean isCold(LocalDate date) {
+        return isCold(date, LocalDate.now(), ttlDays);
+    }
+
     @Override
     public void initTable(String tableName, Collection<String> keys) {
         String createTableStatement = "CREATE TABLE IF NOT EXISTS " + tableName;
@@ -61,6 +195,20 @@ public class SysInfoCQL
 
     @Override
     public void insert(String tableName, Map<String, Double> values) {
+        var insertStatement = insertStatement(tableName, values);
+        try {
+            session.execute(insertStatement);
+        } catch (Exception e) {
+            exceptions.add(new DBException(insertStatement, e.getMessage()));
+        }
+    }
+
+    @Override
+    public void insertChecked(String tableName, Map<String, Double> values) {
+        session.execute(insertStatement(tableName, values));
+    }
+
+    private String insertStatement(String tableName, Map<String, Double> values) {
         var infoDate = "'" + DateTimeFormatter.ISO_LOCAL_DATE.format(LocalDate.now()) + "'";
         var infoTime = "'" + DateTimeFormatter.ISO_LOCAL_TIME.format(LocalTime.now()) + "'";
         String insertStatement = "INSERT INTO " + tableName + " (infodate, infotime";
@@ -71,12 +219,11 @@ public class SysInfoCQL
         for (var value : values.values()) {
             insertStatement += ", " + Double.toString(value);
         }
-        insertStatement += ");";
-        try {
-            session.execute(insertStatement);
-        } catch (Exception e) {
-            exceptions.add(new DBException(insertStatement, e.getMessage()));
+        insertStatement += ")";
+        if (ttlDays > 0) {
+            insertStatement += " USING TTL " + Integer.toString(ttlSeconds(ttlDays));
         }
+        return insertStatement + ";";
     }
 
     @Override
@@ -96,8 +243,19 @@ public class SysInfoCQL
                 .toArray(String[]::new);
     }
 
-    private Map<String, Map<String, Double>> requestTimeRange(
-            LocalDate date, LocalTime from, LocalTime to, String table) {
+    private boolean isArchived(LocalDate date, String table) {
+        if ((archive == null) || !isCold(date)) {
+            return false;
+        }
+        // A reader pointed at the wrong directory would silently serve expired (empty) days from CQL
+        if (!archive.exists() && !archiveMissingReported.getAndSet(true)) {
+            System.err.println("Warning: archive directory " + archive.getRoot().toAbsolutePath()
+                    + " does not exist; days older than " + ttlDays + " days will come from CQL only");
+        }
+        return archive.contains(table, date);
+    }
+
+    private String selectStatement(LocalDate date, LocalTime from, LocalTime to, String table) {
         String selectStatement = "SELECT * FROM " + table + " WHERE infodate = '" + date + "'";
         if (from != null) {
             selectStatement += " AND infotime >= '" + from.format(DateTimeFormatter.ofPattern("HH:mm:ss")) + "'";
@@ -105,24 +263,187 @@ public class SysInfoCQL
         if (to != null) {
             selectStatement += " AND infotime <= '" + to.format(DateTimeFormatter.ofPattern("HH:mm:ss")) + "'";
         }
-        selectStatement += ";";
-        ResultSet rs = session.execute(selectStatement);
+        return selectStatement + ";";
+    }
+
+    private void putRow(Map<String, Map<String, Double>> result, ColumnDefinitions columns,
+            String dateString, Row row) {
+        var metaTime = dateString + " "
+                + LocalTime.ofNanoOfDay(row.getTime("infotime")).format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+        var metrics = new HashMap<String, Double>();
+        for (int i = 2; i < columns.size(); i++) {
+            metrics.put(columns.getName(i), row.getDouble(i));
+        }
+        result.put(metaTime, metrics);
+    }
+
+    private Map<String, Map<String, Double>> requestTimeRange(
+            LocalDate date, LocalTime from, LocalTime to, String table) {
+        if (isArchived(date, table)) {
+            try {
+                return archive.read(table, date, from, to);
+            } catch (Exception e) {
+                exceptions.add(new DBException("archive " + table + " " + date, e.getMessage()));
+            }
+        }
+        ResultSet rs = session.execute(selectStatement(date, from, to, table));
         var columns = rs.getColumnDefinitions();
         var dateString = date.toString();
 
         var result = new TreeMap<String, Map<String, Double>>();
         for (Row row : rs) {
-            var metaTime = dateString + " "
-                    + LocalTime.ofNanoOfDay(row.getTime("infotime")).format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-            var metrics = new HashMap<String, Double>();
-            for (int i = 2; i < columns.size(); i++) {
-                metrics.put(columns.getName(i), row.getDouble(i));
+            putRow(result, columns, dateString, row);
+        }
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> toCompletable(ListenableFuture<T> listenable) {
+        var future = new CompletableFuture<T>();
+        listenable.addListener(() -> {
+            try {
+                future.complete(listenable.get());
+            } catch (ExecutionException e) {
+                future.completeExceptionally(e.getCause());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }, Runnable::run);
+        return future;
+    }
+
+    // Only consumes rows already fetched, so the driver I/O thread never blocks on the next page
+    private CompletableFuture<Map<String, Map<String, Double>>> consumePages(
+            ResultSet rs, String dateString, Map<String, Map<String, Double>> result) {
+        var columns = rs.getColumnDefinitions();
+        for (int remaining = rs.getAvailableWithoutFetching(); remaining > 0; remaining--) {
+            putRow(result, columns, dateString, rs.one());
+        }
+        if (rs.isFullyFetched()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return toCompletable(rs.fetchMoreResults())
+                .thenComposeAsync((next) -> consumePages(next, dateString, result), queryExecutor);
+    }
+
+    // Starts queued queries while permits are available
+    private void drainPendingQueries() {
+        while (queryPermits.tryAcquire()) {
+            var next = pendingQueries.poll();
+            if (next == null) {
+                queryPermits.release();
+                if (pendingQueries.isEmpty()) {
+                    return;
+                }
+                continue;
             }
-            result.put(metaTime, metrics);
+            next.run();
         }
+    }
+
+    // Holds one permit from sending the query until its last page has been consumed
+    private <T> CompletableFuture<T> throttled(Supplier<CompletableFuture<T>> query) {
+        var result = new CompletableFuture<T>();
+        pendingQueries.add(() -> {
+            CompletableFuture<T> started;
+            try {
+                started = query.get();
+            } catch (Exception e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            started.whenCompleteAsync((value, e) -> {
+                queryPermits.release();
+                drainPendingQueries();
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(value);
+                }
+            }, queryExecutor);
+        });
+        drainPendingQueries();
         return result;
     }
 
+    private CompletableFuture<Map<String, Map<String, Double>>> queryTimeRangeAsync(
+            LocalDate date, LocalTime from, LocalTime to, String table) {
+        var dateString = date.toString();
+        return throttled(() -> toCompletable(session.executeAsync(selectStatement(date, from, to, table)))
+                .thenComposeAsync((rs) -> consumePages(rs, dateString, new TreeMap<String, Map<String, Double>>()),
+                        queryExecutor));
+    }
+
+    private CompletableFuture<Map<String, Map<String, Double>>> requestTimeRangeAsync(
+            LocalDate date, LocalTime from, LocalTime to, String table) {
+        if (!isArchived(date, table)) {
+            return queryTimeRangeAsync(date, from, to, table);
+        }
+        // Only the file read runs on the query executor; a broken archive falls back to the async CQL path
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return archive.read(table, date, from, to);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, queryExecutor).handle((result, e) -> {
+            if (e == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            var cause = (e instanceof CompletionException ? e.getCause() : e);
+            exceptions.add(new DBException("archive " + table + " " + date, cause.getMessage()));
+            return queryTimeRangeAsync(date, from, to, table);
+        }).thenCompose((future) -> future);
+    }
+
+    // Runs the requests in order with at most `window` of them in flight; fails on the first error
+    private <T> CompletableFuture<List<T>> runWindowed(List<Supplier<CompletableFuture<T>>> requests,
+            int window) {
+        var done = new CompletableFuture<List<T>>();
+        var results = new AtomicReferenceArray<T>(requests.size());
+        var next = new AtomicInteger();
+        var completed = new AtomicInteger();
+
+        var launcher = new Runnable() {
+            @Override
+            public void run() {
+                int i = next.getAndIncrement();
+                if ((i >= requests.size()) || done.isDone()) {
+                    return;
+                }
+                CompletableFuture<T> request;
+                try {
+                    request = requests.get(i).get();
+                } catch (Exception e) {
+                    done.completeExceptionally(e);
+                    return;
+                }
+                request.whenCompleteAsync((result, e) -> {
+                    if (e != null) {
+                        done.completeExceptionally(e);
+                        return;
+                    }
+                    results.set(i, result);
+                    if (completed.incrementAndGet() == requests.size()) {
+                        var list = new ArrayList<T>();
+                        for (int j = 0; j < results.length(); j++) {
+                            list.add(results.get(j));
+                        }
+                        done.complete(list);
+                    } else {
+                        run();
+                    }
+                }, queryExecutor);
+            }
+        };
+
+        if (requests.isEmpty()) {
+            done.complete(new ArrayList<T>());
+        }
+        for (int i = 0; i < Math.min(window, requests.size()); i++) {
+            launcher.run();
+        }
+        return done;
+    }
+
     @Override
     public Map<String, Map<String, Map<String, Double>>> selectTimeRange(
             LocalDateTime from, LocalDateTime to, Collection<String> groups) {
@@ -148,6 +469,37 @@ public class SysInfoCQL
         return result;
     }
 
+    @Override
+    public CompletionStage<Map<String, Map<String, Map<String, Double>>>> selectTimeRangeAsync(
+            LocalDateTime from, LocalDateTime to, Collection<String> groups) {
+        var fromDate = from.toLocalDate();
+        var toDate = to.toLocalDate();
+        var requestGroups = new ArrayList<String>();
+        var requests = new ArrayList<Supplier<CompletableFuture<Map<String, Map<String, Double>>>>>();
+
+        for (var date = fromDate; date.isBefore(toDate) || date.isEqual(toDate); date = date.plusDays(1)) {
+            var requestDate = date;
+            var fromTime = (date.isEqual(fromDate) ? from.toLocalTime() : null);
+            var toTime = (date.isEqual(toDate) ? to.toLocalTime() : null);
+            for (var group : groups) {
+                requestGroups.add(group);
+                requests.add(() -> requestTimeRangeAsync(requestDate, fromTime, toTime, group));
+            }
+        }
+
+        return runWindowed(requests, MAX_IN_FLIGHT_PER_REQUEST).thenApplyAsync((days) -> {
+            var result = new HashMap<String, Map<String, Map<String, Double>>>();
+            for (var group : groups) {
+                result.put(group, new TreeMap<String, Map<String, Double>>());
+            }
+            for (int i = 0; i < days.size(); i++) {
+                var groupMetrics = result.get(requestGroups.get(i));
+                days.get(i).forEach((key, value) -> groupMetrics.merge(key, value, (v1, v2) -> v1));
+            }
+            return result;
+        }, queryExecutor);
+    }
+
     @Override
     public void destroy() {
         session.execute("DROP KEYSPACE " + namespace + ";");
@@ -3,6 +3,7 @@ package com.sysmetrics.main;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -21,12 +22,19 @@ public interface SysInfoDB extends AutoCloseable {
 
     public void insert(String tableName, Map<String, Double> values);
 
+    // Same as insert, but throws on failure instead of adding to getExceptions
+    public void insertChecked(String tableName, Map<String, Double> values);
+
     public String[] getGroups();
 
     // Map<Group, Map<Timestamp, Map<Metric, Value>>>
     public Map<String, Map<String, Map<String, Double>>> selectTimeRange(
             LocalDateTime from, LocalDateTime to, Collection<String> groups);
 
+    // Same as selectTimeRange, but does not block the calling thread
+    public CompletionStage<Map<String, Map<String, Map<String, Double>>>> selectTimeRangeAsync(
+            LocalDateTime from, LocalDateTime to, Collection<String> groups);
+
     public Collection<DBException> getExceptions();
 
     void destroy();
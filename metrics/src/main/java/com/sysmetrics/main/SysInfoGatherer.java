@@ -170,11 +170,18 @@ public class SysInfoGatherer {
             return this;
         }
 
-        public Builder initLogCQL(String contactPoint, String namespace, String username, String password) {
-            SysInfoGatherer.this.db = new SysInfoCQL(contactPoint, namespace, username, password);
+        public Builder initLogCQL(String contactPoint, String namespace, String username, String password,
+                int ttlDays, String archivePath) {
+            var cql = new SysInfoCQL(contactPoint, namespace, username, password, ttlDays, archivePath);
+            cql.startArchiver(60);
+            SysInfoGatherer.this.db = cql;
             return this;
         }
 
+        public Builder initLogCQL(String contactPoint, String namespace, String username, String password) {
+            return initLogCQL(contactPoint, namespace, username, password, 0, "");
+        }
+
         public Builder initLogCQL(String contactPoint, String namespace) {
             return initLogCQL(contactPoint, namespace, "", "");
         }
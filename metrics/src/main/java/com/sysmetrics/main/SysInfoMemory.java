@@ -0,0 +1,132 @@
+package com.sysmetrics.main;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * In-process stand-in for an external database, used by the load generator to run without a cluster.
+ * Keeps everything on the heap and mirrors SysInfoCQL semantics: case-insensitive names,
+ * unknown tables and columns are rejected, unset columns read as 0.0,
+ * timestamps have second precision and range bounds are inclusive.
+ */
+public class SysInfoMemory
+        implements SysInfoDB {
+
+    private static class Table {
+        private Set<String> columns;
+        private ConcurrentSkipListMap<LocalDateTime, Map<String, Double>> rows =
+                new ConcurrentSkipListMap<LocalDateTime, Map<String, Double>>();
+
+        private Table(Set<String> columns) {
+            this.columns = columns;
+        }
+    }
+
+    private Map<String, Table> tables = new ConcurrentHashMap<String, Table>();
+    private Collection<DBException> exceptions = Collections.synchronizedList(new ArrayList<DBException>());
+    // Async queries run here, so callers really get several queries in flight at once
+    private ExecutorService queryExecutor = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    @Override
+    public void close() {
+        queryExecutor.shutdownNow();
+    }
+
+    @Override
+    public void initTable(String tableName, Collection<String> keys) {
+        var columns = new LinkedHashSet<String>();
+        for (var key : keys) {
+            columns.add(key.toLowerCase());
+        }
+        // Like CREATE TABLE IF NOT EXISTS, an existing table keeps its columns
+        tables.putIfAbsent(tableName.toLowerCase(), new Table(columns));
+    }
+
+    @Override
+    public void insert(String tableName, Map<String, Double> values) {
+        try {
+            insertChecked(tableName, values);
+        } catch (IllegalArgumentException e) {
+            exceptions.add(new DBException("insert " + tableName, e.getMessage()));
+        }
+    }
+
+    @Override
+    public void insertChecked(String tableName, Map<String, Double> values) {
+        var table = tables.get(tableName.toLowerCase());
+        if (table == null) {
+            throw new IllegalArgumentException("unconfigured table " + tableName);
+        }
+        var row = new HashMap<String, Double>();
+        for (var column : table.columns) {
+            row.put(column, 0.0);
+        }
+        for (var value : values.entrySet()) {
+            var column = value.getKey().toLowerCase();
+            if (!table.columns.contains(column)) {
+                throw new IllegalArgumentException("Undefined column name " + column);
+            }
+            row.put(column, value.getValue());
+        }
+        table.rows.put(LocalDateTime.now(), row);
+    }
+
+    @Override
+    public Collection<DBException> getExceptions() {
+        return exceptions;
+    }
+
+    @Override
+    public String[] getGroups() {
+        return tables.keySet().toArray(String[]::new);
+    }
+
+    @Override
+    public Map<String, Map<String, Map<String, Double>>> selectTimeRange(
+            LocalDateTime from, LocalDateTime to, Collection<String> groups) {
+        var fromSecond = from.truncatedTo(ChronoUnit.SECONDS);
+        var toSecond = to.truncatedTo(ChronoUnit.SECONDS);
+        var format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        var result = new HashMap<String, Map<String, Map<String, Double>>>();
+
+        for (var group : groups) {
+            var groupMetrics = new TreeMap<String, Map<String, Double>>();
+            var table = tables.get(group.toLowerCase());
+            if (table != null) {
+                for (var entry : table.rows.subMap(fromSecond, true, toSecond, true).entrySet()) {
+                    groupMetrics.merge(entry.getKey().format(format), entry.getValue(), (v1, v2) -> v2);
+                }
+            }
+            result.put(group, groupMetrics);
+        }
+
+        return result;
+    }
+
+    @Override
+    public CompletionStage<Map<String, Map<String, Map<String, Double>>>> selectTimeRangeAsync(
+            LocalDateTime from, LocalDateTime to, Collection<String> groups) {
+        return CompletableFuture.supplyAsync(() -> selectTimeRange(from, to, groups), queryExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        tables.clear();
+    }
+}
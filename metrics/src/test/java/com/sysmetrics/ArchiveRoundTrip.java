@@ -0,0 +1,55 @@
+package com.sysmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.sysmetrics.main.SysInfoArchive;
+
+@RunWith(JUnit4.class)
+public class ArchiveRoundTrip {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void closedDayReadBack()
+            throws IOException {
+        File root = folder.getRoot();
+        var archive = new SysInfoArchive(root.getPath(), "SysTest");
+        var date = LocalDate.of(2022, 5, 1);
+        List<Long> times = Arrays.asList(
+                LocalTime.of(10, 0, 0).toNanoOfDay(),
+                LocalTime.of(11, 0, 0).toNanoOfDay(),
+                LocalTime.of(12, 0, 0).toNanoOfDay());
+        List<double[]> rows = Arrays.asList(
+                new double[] { 1.0, 10.0 },
+                new double[] { 2.0, 20.0 },
+                new double[] { 3.0, 30.0 });
+
+        assertFalse(archive.contains("foo", date));
+        archive.write("foo", date, Arrays.asList("indata", "outdata"), times, rows);
+        assertTrue(archive.contains("foo", date));
+
+        var all = archive.read("foo", date, null, null);
+        assertEquals(3, all.size());
+        assertEquals(20.0, all.get("2022-05-01 11:00:00").get("outdata"), 0.0);
+
+        var range = archive.read("foo", date, LocalTime.of(10, 30), LocalTime.of(12, 0));
+        assertEquals(2, range.size());
+        assertTrue(range.containsKey("2022-05-01 12:00:00"));
+        assertFalse(range.containsKey("2022-05-01 10:00:00"));
+    }
+}
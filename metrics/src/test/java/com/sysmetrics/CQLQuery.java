@@ -1,9 +1,16 @@
 package com.sysmetrics;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -35,6 +42,46 @@ public class CQLQuery {
         assertTrue(cqlInterface.getGroups().length == expectedTables.size());
     }
 
+    @Test
+    public void asyncSelectMatchesSync()
+            throws Exception {
+        var from = LocalDateTime.now().minusMinutes(1);
+        // More rows than the driver's default fetch size, so the async path has to page
+        for (int i = 0; i < 5500; i++) {
+            cqlInterface.insert("bar", Map.of("testdata", (double) i));
+        }
+        cqlInterface.insert("foo", Map.of("indata", 1.0, "outdata", 2.0));
+        var to = LocalDateTime.now().plusMinutes(1);
+
+        var groups = Arrays.asList("foo", "bar");
+        var syncMetrics = cqlInterface.selectTimeRange(from, to, groups);
+        var asyncMetrics = cqlInterface.selectTimeRangeAsync(from, to, groups)
+                .toCompletableFuture()
+                .get();
+        assertFalse(asyncMetrics.get("bar").isEmpty());
+        assertEquals(syncMetrics, asyncMetrics);
+    }
+
+    @Test
+    public void overlappingAsyncSelectsQueue()
+            throws Exception {
+        cqlInterface.insert("foo", Map.of("indata", 3.0, "outdata", 4.0));
+        var to = LocalDateTime.now().plusMinutes(1);
+        // Many multi-day requests at once exceed the connection pool; they must wait, not fail
+        var from = to.minusDays(30);
+        var groups = Arrays.asList("foo", "bar");
+        var expected = cqlInterface.selectTimeRange(from, to, groups);
+
+        var requests = new ArrayList<CompletableFuture<Map<String, Map<String, Map<String, Double>>>>>();
+        for (int i = 0; i < 300; i++) {
+            requests.add(cqlInterface.selectTimeRangeAsync(from, to, groups).toCompletableFuture());
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+        for (var request : requests) {
+            assertEquals(expected, request.get());
+        }
+    }
+
     @AfterClass
     public static void tearDown() {
         cqlInterface.destroy();
@@ -0,0 +1,49 @@
+package com.sysmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.sysmetrics.main.SysInfoDB;
+import com.sysmetrics.main.SysInfoMemory;
+
+@RunWith(JUnit4.class)
+public class MemoryQuery {
+    @Test
+    public void insertedRowsSelected()
+            throws Exception {
+        SysInfoDB db = new SysInfoMemory();
+        db.initTable("foo", Arrays.asList("indata", "outdata"));
+        db.insert("foo", Map.of("indata", 5.0));
+        db.insert("bar", Map.of("indata", 1.0));
+        db.insert("foo", Map.of("testdata", 1.0));
+        assertEquals(2, db.getExceptions().size());
+        try {
+            db.insertChecked("foo", Map.of("testdata", 1.0));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        var now = LocalDateTime.now();
+        var metrics = db.selectTimeRangeAsync(now.minusMinutes(1), now.plusMinutes(1), Arrays.asList("foo"))
+                .toCompletableFuture()
+                .get();
+        assertEquals(1, metrics.get("foo").size());
+        // Like a null CQL cell, an unset column reads as 0.0
+        var row = metrics.get("foo").values().iterator().next();
+        assertTrue(row.get("indata") == 5.0);
+        assertTrue(row.get("outdata") == 0.0);
+
+        var empty = db.selectTimeRange(now.minusDays(2), now.minusDays(1), Arrays.asList("foo"));
+        assertTrue(empty.get("foo").isEmpty());
+        db.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.sysmetrics.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class RetentionWindow {
+    private static final LocalDate TODAY = LocalDate.of(2022, 5, 10);
+
+    @Test
+    public void hotAndColdTiersMeet() {
+        for (int ttlDays = 1; ttlDays <= 30; ttlDays++) {
+            var lastCold = TODAY.minusDays(ttlDays);
+            assertTrue(SysInfoCQL.isCold(lastCold, TODAY, ttlDays));
+            assertFalse(SysInfoCQL.isCold(lastCold.plusDays(1), TODAY, ttlDays));
+            assertFalse(SysInfoCQL.isCold(TODAY, TODAY, ttlDays));
+            // The day that just turned cold is still exported on the same day
+            assertTrue(SysInfoCQL.archiveWindow(TODAY, ttlDays).contains(lastCold));
+        }
+    }
+
+    @Test
+    public void oldestExportedDayNotExpiring() {
+        for (int ttlDays = 1; ttlDays <= 30; ttlDays++) {
+            var window = SysInfoCQL.archiveWindow(TODAY, ttlDays);
+            assertEquals(TODAY.minusDays(1), window.get(window.size() - 1));
+
+            // The earliest row of the oldest day must outlive every archiver run of today
+            var oldest = window.get(0);
+            var firstExpiry = oldest.atStartOfDay().plusSeconds(SysInfoCQL.ttlSeconds(ttlDays));
+            assertFalse(firstExpiry.isBefore(TODAY.plusDays(1).atStartOfDay()));
+            // ...while the day before it has already started expiring
+            var previousExpiry = oldest.minusDays(1).atStartOfDay().plusSeconds(SysInfoCQL.ttlSeconds(ttlDays));
+            assertTrue(previousExpiry.isBefore(TODAY.plusDays(1).atStartOfDay()));
+        }
+    }
+
+    @Test
+    public void zeroTtlDisablesArchive() {
+        assertTrue(SysInfoCQL.archiveWindow(TODAY, 0).isEmpty());
+        assertFalse(SysInfoCQL.isCold(TODAY.minusYears(10), TODAY, 0));
+    }
+}
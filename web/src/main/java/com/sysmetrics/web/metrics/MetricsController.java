@@ -5,6 +5,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import javax.annotation.PostConstruct;
 
@@ -32,10 +34,14 @@ public class MetricsController {
     private String dbUsername;
     @Value("${db.password:}")
     private String dbPassword;
+    @Value("${db.ttl_days:0}")
+    private int dbTtlDays;
+    @Value("${db.archive_path:}")
+    private String dbArchivePath;
 
     @PostConstruct
     public void init() {
-        db = new SysInfoCQL(dbContact, dbNamespace, dbUsername, dbPassword);
+        db = new SysInfoCQL(dbContact, dbNamespace, dbUsername, dbPassword, dbTtlDays, dbArchivePath);
     }
 
     @RequestMapping("/")
@@ -44,8 +50,9 @@ public class MetricsController {
         return "index";
     }
 
+    // Returning a CompletionStage frees the servlet thread while CQL queries are in flight
     @GetMapping("/data")
-    public String metricsCharts(
+    public CompletionStage<String> metricsCharts(
             @RequestParam(value = "from", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
             @RequestParam(value = "to", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
             @RequestParam(value = "groups", required = false) List<String> groups,
@@ -57,21 +64,22 @@ public class MetricsController {
             if (groups.stream().anyMatch((group) -> {
                 return !existingGroups.contains(group);
             })) {
-                return "index";
+                return CompletableFuture.completedFuture("index");
             }
         }
 
-        var metrics = db.selectTimeRange(from, to, groups);
-        var metricLabels = new HashMap<String, Collection<String>>();
-        for (var groupEntry : metrics.entrySet()) {
-            var group = groupEntry.getKey();
-            for (var timestampEntry : groupEntry.getValue().values()) {
-                metricLabels.put(group, timestampEntry.keySet());
+        return db.selectTimeRangeAsync(from, to, groups).thenApply((metrics) -> {
+            var metricLabels = new HashMap<String, Collection<String>>();
+            for (var groupEntry : metrics.entrySet()) {
+                var group = groupEntry.getKey();
+                for (var timestampEntry : groupEntry.getValue().values()) {
+                    metricLabels.put(group, timestampEntry.keySet());
+                }
             }
-        }
-        model.addAttribute("metrics", metrics);
-        model.addAttribute("metricLabels", metricLabels);
-        return "show-metrics";
+            model.addAttribute("metrics", metrics);
+            model.addAttribute("metricLabels", metricLabels);
+            return "show-metrics";
+        });
     }
 
 }